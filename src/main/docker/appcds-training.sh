@@ -0,0 +1,113 @@
+#!/bin/bash
+####
+# Training run for the AppCDS archive, executed while building the JVM image with
+#
+# docker-compose --profile scratch up -d scratch-db
+# docker build --network host --build-arg APPCDS_TRAINING=true -f src/main/docker/Dockerfile.jvm -t quarkus/code-with-quarkus-jvm:appcds .
+#
+# It starts the application with -XX:ArchiveClassesAtExit, drives every membership endpoint
+# so Hibernate, Jackson and SmallRye JWT load their request-path classes, then stops the
+# application so the JVM dumps /deployments/app-cds.jsa.
+#
+# The application recreates its schema on start and the training registers users with a known
+# password, so it only ever runs against the throwaway scratch-db from docker-compose. Point
+# APPCDS_TRAINING_JDBC_URL (and _DB_USER/_DB_PASSWORD) at another empty database if needed;
+# the shared quarkus_db is refused.
+###
+set -euo pipefail
+
+ARCHIVE=/deployments/app-cds.jsa
+BASE_URL=http://localhost:8080/api/v1
+ROUNDS=${APPCDS_TRAINING_ROUNDS:-50}
+JDBC_URL=${APPCDS_TRAINING_JDBC_URL:-jdbc:postgresql://localhost:55432/scratch_db}
+DB_USER=${APPCDS_TRAINING_DB_USER:-scratch_user}
+DB_PASSWORD=${APPCDS_TRAINING_DB_PASSWORD:-scratch_password}
+
+case "$JDBC_URL" in
+    */quarkus_db*)
+        echo "Refusing to train against the shared database $JDBC_URL, use a throwaway one" >&2
+        exit 1
+        ;;
+esac
+
+WORK_DIR=$(mktemp -d)
+trap 'rm -rf "$WORK_DIR"' EXIT
+
+# Throwaway key pair and service token for the bulk lookup; the key is only trusted by this run
+cat > "$WORK_DIR/TrainingServiceToken.java" <<'EOF'
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.Signature;
+import java.util.Base64;
+
+public class TrainingServiceToken {
+    public static void main(String[] args) throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        KeyPair keyPair = generator.generateKeyPair();
+        Files.writeString(Path.of(args[0]), "-----BEGIN PUBLIC KEY-----\n"
+                + Base64.getMimeEncoder().encodeToString(keyPair.getPublic().getEncoded())
+                + "\n-----END PUBLIC KEY-----\n");
+
+        long now = System.currentTimeMillis() / 1000;
+        Base64.Encoder base64 = Base64.getUrlEncoder().withoutPadding();
+        String header = "{\"alg\":\"RS256\",\"typ\":\"JWT\"}";
+        String claims = "{\"iss\":\"" + args[1] + "\",\"aud\":\"" + args[2] + "\",\"upn\":\"appcds-training\""
+                + ",\"sub\":\"appcds-training\",\"iat\":" + now + ",\"exp\":" + (now + 3600) + "}";
+        String content = base64.encodeToString(header.getBytes(StandardCharsets.UTF_8)) + "."
+                + base64.encodeToString(claims.getBytes(StandardCharsets.UTF_8));
+
+        Signature signature = Signature.getInstance("SHA256withRSA");
+        signature.initSign(keyPair.getPrivate());
+        signature.update(content.getBytes(StandardCharsets.US_ASCII));
+        System.out.println(content + "." + base64.encodeToString(signature.sign()));
+    }
+}
+EOF
+service_token=$(java "$WORK_DIR/TrainingServiceToken.java" "$WORK_DIR/publickey.pem" \
+    https://membership.internal/service-clients membership-profile-lookup)
+
+# The archive must be dumped by the same JVM, with the same classpath, that runs it later
+rm -f "$ARCHIVE"
+java -XX:ArchiveClassesAtExit="$ARCHIVE" \
+    -Djava.util.logging.manager=org.jboss.logmanager.LogManager \
+    -Dquarkus.datasource.jdbc.url="$JDBC_URL" \
+    -Dquarkus.datasource.username="$DB_USER" \
+    -Dquarkus.datasource.password="$DB_PASSWORD" \
+    -Dmembership.service-token.public-key-location="file:$WORK_DIR/publickey.pem" \
+    -jar /deployments/quarkus-run.jar &
+APP_PID=$!
+
+for _ in $(seq 1 120); do
+    if curl -s -o /dev/null "$BASE_URL/login"; then
+        break
+    fi
+    sleep 0.5
+done
+
+post() {
+    curl -s -o /dev/null -X "$1" "$BASE_URL$2" -H 'Content-Type: application/json' ${3:+-H "$3"} -d "$4"
+}
+
+for i in $(seq 1 "$ROUNDS"); do
+    email="training-$i@example.com"
+    post POST /registration "" "{\"email\":\"$email\",\"firstName\":\"Training\",\"lastName\":\"User\",\"password\":\"Password123!\"}"
+    post POST /registration "" "{\"email\":\"$email\",\"firstName\":\"\",\"lastName\":\"\",\"password\":\"short\"}"
+    post POST /login "" "{\"email\":\"$email\",\"password\":\"WrongPassword123!\"}"
+
+    token=$(curl -s -X POST "$BASE_URL/login" -H 'Content-Type: application/json' \
+        -d "{\"email\":\"$email\",\"password\":\"Password123!\"}" | sed -n 's/.*"token":"\([^"]*\)".*/\1/p')
+
+    curl -s -o /dev/null "$BASE_URL/profile" -H "Authorization: Bearer $token"
+    post PUT /profile/update "Authorization: Bearer $token" "{\"firstName\":\"Training $i\",\"lastName\":\"User\"}"
+    post POST /profiles/lookup "X-Service-Token: $service_token" "{\"emails\":[\"$email\"],\"ids\":[$i]}"
+    post POST /profiles/lookup "X-Service-Token: $token" "{\"emails\":[\"$email\"]}"
+done
+
+kill -TERM "$APP_PID"
+wait "$APP_PID" || true
+
+test -s "$ARCHIVE"
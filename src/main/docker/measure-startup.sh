@@ -0,0 +1,154 @@
+#!/bin/bash
+####
+# Measures time-to-first-request, warmup latency, RSS and throughput of container images and
+# compares them with the first one, e.g. the fast-jar baseline against the AppCDS and native images:
+#
+# docker-compose --profile scratch up -d scratch-db
+# src/main/docker/measure-startup.sh quarkus/code-with-quarkus-jvm quarkus/code-with-quarkus-jvm:appcds quarkus/code-with-quarkus
+#
+# The containers run with --network host. The application recreates its schema on start, so they
+# use the throwaway scratch-db from docker-compose (MEASURE_JDBC_URL), never the shared quarkus_db.
+# Set RUNS to repeat every image; every column is the average over the runs.
+#
+# RSS is VmRSS of the application process (from /proc), not the container's memory usage, which
+# also counts page cache. Throughput needs `hey` (https://github.com/rakyll/hey) on the PATH and
+# is skipped without it.
+###
+set -euo pipefail
+
+if [ $# -eq 0 ]; then
+    echo "usage: measure-startup.sh <baseline image> [<image>...]" >&2
+    exit 1
+fi
+
+BASE_URL=http://localhost:8080/api/v1
+RUNS=${RUNS:-3}
+REQUESTS=${REQUESTS:-200}
+THROUGHPUT_REQUESTS=${THROUGHPUT_REQUESTS:-5000}
+CONCURRENCY=${CONCURRENCY:-16}
+JDBC_URL=${MEASURE_JDBC_URL:-jdbc:postgresql://localhost:55432/scratch_db}
+DB_USER=${MEASURE_DB_USER:-scratch_user}
+DB_PASSWORD=${MEASURE_DB_PASSWORD:-scratch_password}
+
+case "$JDBC_URL" in
+    */quarkus_db*)
+        echo "Refusing to measure against the shared database $JDBC_URL, use a throwaway one" >&2
+        exit 1
+        ;;
+esac
+
+now_ms() {
+    echo $(( $(date +%s%N) / 1000000 ))
+}
+
+average() {
+    printf '%s\n' "$@" | awk '{ sum += $1 } END { printf "%.2f", sum / NR }'
+}
+
+container=""
+trap '[ -n "$container" ] && docker stop "$container" > /dev/null' EXIT
+
+# Starts the image once and sets first_request, first_latency, warmup_first, warmup_last, rss and throughput
+measure() {
+    local image=$1
+    local email="bench-$(date +%s%N)@example.com"
+
+    local start=$(now_ms)
+    container=$(docker run -d --rm --network host \
+        -e QUARKUS_DATASOURCE_JDBC_URL="$JDBC_URL" \
+        -e QUARKUS_DATASOURCE_USERNAME="$DB_USER" \
+        -e QUARKUS_DATASOURCE_PASSWORD="$DB_PASSWORD" \
+        "$image")
+
+    # Time until the application answers its first real request
+    until curl -s -o /dev/null -X POST "$BASE_URL/registration" -H 'Content-Type: application/json' \
+            -d "{\"email\":\"$email\",\"firstName\":\"Bench\",\"lastName\":\"User\",\"password\":\"Password123!\"}"; do
+        sleep 0.05
+    done
+    first_request=$(( $(now_ms) - start ))
+
+    local token=$(curl -s -X POST "$BASE_URL/login" -H 'Content-Type: application/json' \
+        -d "{\"email\":\"$email\",\"password\":\"Password123!\"}" | sed -n 's/.*"token":"\([^"]*\)".*/\1/p')
+
+    # Latency of each profile request, in milliseconds, from cold to warm
+    local latencies=()
+    for _ in $(seq 1 "$REQUESTS"); do
+        local seconds=$(curl -s -o /dev/null -w '%{time_total}' "$BASE_URL/profile" -H "Authorization: Bearer $token")
+        latencies+=("$(awk -v s="$seconds" 'BEGIN { printf "%.2f", s * 1000 }')")
+    done
+    first_latency=${latencies[0]}
+    warmup_first=$(average "${latencies[@]:0:20}")
+    warmup_last=$(average "${latencies[@]: -20}")
+
+    # Resident memory after warmup, then throughput of concurrent profile requests
+    rss=$(rss_mib "$container")
+
+    throughput=n/a
+    if command -v hey > /dev/null; then
+        throughput=$(hey -n "$THROUGHPUT_REQUESTS" -c "$CONCURRENCY" -H "Authorization: Bearer $token" \
+            "$BASE_URL/profile" | awk '/Requests\/sec/ { printf "%.0f", $2 }')
+    fi
+
+    docker stop "$container" > /dev/null
+    container=""
+}
+
+# VmRSS of the container's main process in MiB, read on the host or, e.g. on Docker Desktop, in the container
+rss_mib() {
+    local pid=$(docker inspect -f '{{.State.Pid}}' "$1")
+    local status
+    status=$(cat "/proc/$pid/status" 2> /dev/null) || status=$(docker exec "$1" cat /proc/1/status)
+    echo "$status" | awk '/^VmRSS:/ { printf "%.1f", $2 / 1024 }'
+}
+
+# Percentage change against the baseline, e.g. -35.2%
+delta() {
+    if [ "$1" = n/a ] || [ "$2" = n/a ]; then
+        echo n/a
+        return
+    fi
+    awk -v value="$1" -v base="$2" 'BEGIN { if (base > 0) printf "%+.1f%%", (value - base) * 100 / base; else print "-" }'
+}
+
+METRICS=(first_request first_latency warmup_first warmup_last rss throughput)
+
+if ! command -v hey > /dev/null; then
+    echo "hey not found, skipping throughput" >&2
+fi
+printf '%-45s %12s %12s %12s %12s %12s %10s\n' image "first req" "1st profile" "avg 1-20" "avg last 20" "VmRSS" "req/s"
+
+baseline=()
+for image in "$@"; do
+    # One list of samples per metric, e.g. samples_rss="210.5 208.1 212.0"
+    for metric in "${METRICS[@]}"; do
+        declare "samples_$metric="
+    done
+    for _ in $(seq 1 "$RUNS"); do
+        measure "$image"
+        for metric in "${METRICS[@]}"; do
+            samples="samples_$metric"
+            declare "samples_$metric=${!samples} ${!metric}"
+        done
+    done
+
+    averages=()
+    for metric in "${METRICS[@]}"; do
+        samples="samples_$metric"
+        if [[ " ${!samples} " == *" n/a "* ]]; then
+            averages+=(n/a)
+        else
+            averages+=("$(average ${!samples})")
+        fi
+    done
+
+    printf '%-45s %10sms %10sms %10sms %10sms %9sMiB %10s\n' "$image" "${averages[@]}"
+    if [ ${#baseline[@]} -eq 0 ]; then
+        baseline=("${averages[@]}")
+    else
+        deltas=()
+        for i in "${!averages[@]}"; do
+            deltas+=("$(delta "${averages[$i]}" "${baseline[$i]}")")
+        done
+        printf '%-45s %12s %12s %12s %12s %12s %10s\n' "  vs ${1}" "${deltas[@]}"
+    fi
+done
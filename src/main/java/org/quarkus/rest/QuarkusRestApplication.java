@@ -3,12 +3,40 @@ package org.quarkus.rest;
 import io.quarkus.runtime.Quarkus;
 import io.quarkus.runtime.QuarkusApplication;
 import io.quarkus.runtime.annotations.QuarkusMain;
+import jakarta.inject.Inject;
+import org.quarkus.rest.importer.UserImportService;
+
+import java.nio.file.Path;
 
 @QuarkusMain
 public class QuarkusRestApplication implements QuarkusApplication {
 
+    public static final String IMPORT_COMMAND = "import-users";
+
+    @Inject
+    UserImportService userImportService;
+
+    public static void main(String... args) {
+        if (args.length > 0 && IMPORT_COMMAND.equals(args[0])) {
+            // The import runs without HTTP and the scheduler, see the %import profile. Schema generation is
+            // forced off here, above any env or config value, because it runs before the import could check it.
+            System.setProperty("quarkus.profile", "import");
+            System.setProperty("quarkus.hibernate-orm.database.generation", "none");
+            System.setProperty("quarkus.hibernate-orm.sql-load-script", "no-file");
+        }
+        Quarkus.run(QuarkusRestApplication.class, args);
+    }
+
     @Override
     public int run(String... args) throws Exception {
+        if (args.length > 0 && IMPORT_COMMAND.equals(args[0])) {
+            if (args.length != 2) {
+                System.err.println("Usage: " + IMPORT_COMMAND + " <users.ndjson>");
+                return 1;
+            }
+            return userImportService.importFile(Path.of(args[1]));
+        }
+
         System.out.println("Starting Quarkus REST Application...");
         Quarkus.waitForExit();
         return 0;
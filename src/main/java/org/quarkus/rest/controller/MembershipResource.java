@@ -2,9 +2,15 @@ package org.quarkus.rest.controller;
 
 import org.quarkus.rest.dto.*;
 import org.quarkus.rest.entity.User;
+import org.quarkus.rest.filter.ConcurrencyBudget;
+import org.quarkus.rest.filter.EndpointClass;
+import org.quarkus.rest.filter.ServiceTokenRequired;
 import org.quarkus.rest.repository.UserRepository;
 import org.quarkus.rest.service.TokenService;
 import org.quarkus.rest.service.PasswordService;
+import org.quarkus.rest.service.RegisteredEmailFilter;
+import org.quarkus.rest.service.ServiceTokenVerifier;
+import org.quarkus.rest.service.UserLookupService;
 import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
 import jakarta.validation.Valid;
@@ -19,19 +25,35 @@ import org.eclipse.microprofile.openapi.annotations.media.Content;
 import org.eclipse.microprofile.openapi.annotations.media.Schema;
 import org.eclipse.microprofile.openapi.annotations.parameters.RequestBody;
 import org.eclipse.microprofile.openapi.annotations.security.SecurityRequirement;
+import org.eclipse.microprofile.openapi.annotations.enums.SecuritySchemeIn;
 import org.eclipse.microprofile.openapi.annotations.enums.SecuritySchemeType;
 import org.eclipse.microprofile.openapi.annotations.security.SecurityScheme;
+import org.eclipse.microprofile.openapi.annotations.security.SecuritySchemes;
+import java.sql.SQLException;
 import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Path("/api/v1")
 @Produces(MediaType.APPLICATION_JSON)
 @Consumes(MediaType.APPLICATION_JSON)
-@SecurityScheme(
-    securitySchemeName = "bearerAuth",
-    type = SecuritySchemeType.HTTP,
-    scheme = "bearer",
-    bearerFormat = "JWT"
-)
+@SecuritySchemes({
+    @SecurityScheme(
+        securitySchemeName = "bearerAuth",
+        type = SecuritySchemeType.HTTP,
+        scheme = "bearer",
+        bearerFormat = "JWT"
+    ),
+    @SecurityScheme(
+        securitySchemeName = "serviceToken",
+        type = SecuritySchemeType.APIKEY,
+        in = SecuritySchemeIn.HEADER,
+        apiKeyName = ServiceTokenVerifier.HEADER
+    )
+})
 public class MembershipResource {
 
     @Inject
@@ -43,12 +65,19 @@ public class MembershipResource {
     @Inject
     PasswordService passwordService;
 
+    @Inject
+    UserLookupService userLookupService;
+
+    @Inject
+    RegisteredEmailFilter registeredEmailFilter;
+
     @Inject
     JsonWebToken jwt;
 
   
     @POST
     @Path("/registration")
+    @ConcurrencyBudget(EndpointClass.CPU)
     @Transactional
     @Operation(
         summary = "User Registration",
@@ -77,8 +106,9 @@ public class MembershipResource {
         )
         @Valid RegistrationRequest request) {
         try {
-            // Check if email already exists
-            if (userRepository.existsByEmail(request.getEmail())) {
+            // Check if email already exists, the filter rules out most new emails without a query
+            if (registeredEmailFilter.mightContain(request.getEmail())
+                    && userRepository.existsByEmail(request.getEmail())) {
                 return Response.status(Response.Status.BAD_REQUEST)
                         .entity(ApiResponse.error("Email already registered"))
                         .build();
@@ -93,6 +123,9 @@ public class MembershipResource {
             user.setProfileImage("https://yoururlapi.com/profile.jpeg"); // Default profile image
 
             userRepository.persist(user);
+            // Flush now, so a concurrent registration of the same email fails here instead of at commit
+            userRepository.flush();
+            registeredEmailFilter.add(user.getEmail());
 
             ApiResponse<Object> response = ApiResponse.success("User registered successfully");
             return Response.status(Response.Status.CREATED)
@@ -100,6 +133,12 @@ public class MembershipResource {
                     .build();
 
         } catch (Exception e) {
+            // The transaction is marked rollback-only, so it is rolled back when this method returns
+            if (isUniqueViolation(e)) {
+                return Response.status(Response.Status.BAD_REQUEST)
+                        .entity(ApiResponse.error("Email already registered"))
+                        .build();
+            }
             return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
                     .entity(ApiResponse.error("Registration failed: " + e.getMessage()))
                     .build();
@@ -108,6 +147,7 @@ public class MembershipResource {
 
     @POST
     @Path("/login")
+    @ConcurrencyBudget(EndpointClass.CPU)
     @Operation(
         summary = "User Login",
         description = "Authenticate user and return JWT token"
@@ -138,7 +178,7 @@ public class MembershipResource {
             System.out.println("DEBUG: Login attempt for email: " + request.getEmail());
 
             // Find user by email
-            User user = userRepository.findByEmail(request.getEmail())
+            User user = userLookupService.findByEmail(request.getEmail())
                     .orElse(null);
 
             if (user == null) {
@@ -177,6 +217,7 @@ public class MembershipResource {
 
     @GET
     @Path("/profile")
+    @ConcurrencyBudget(EndpointClass.READ)
     @SecurityRequirement(name = "bearerAuth")
     @Operation(
         summary = "Get User Profile",
@@ -212,7 +253,7 @@ public class MembershipResource {
             }
 
             // Find user by email
-            User user = userRepository.findByEmail(email).orElse(null);
+            User user = userLookupService.findByEmail(email).orElse(null);
             if (user == null) {
                 return Response.status(Response.Status.NOT_FOUND)
                         .entity(ApiResponse.error("User not found"))
@@ -220,12 +261,7 @@ public class MembershipResource {
             }
 
             // Create profile response
-            ProfileResponse profileResponse = new ProfileResponse(
-                    user.getEmail(),
-                    user.getFirstName(),
-                    user.getLastName(),
-                    user.getProfileImage() != null ? user.getProfileImage() : "https://yoururlapi.com/profile.jpeg"
-            );
+            ProfileResponse profileResponse = toProfileResponse(user);
 
             return Response.ok()
                     .entity(ApiResponse.success("successful", profileResponse))
@@ -240,6 +276,7 @@ public class MembershipResource {
 
     @PUT
     @Path("/profile/update")
+    @ConcurrencyBudget(EndpointClass.WRITE)
     @Transactional
     @SecurityRequirement(name = "bearerAuth")
     @Operation(
@@ -295,12 +332,7 @@ public class MembershipResource {
             user.setUpdatedAt(LocalDateTime.now());
 
             // Create profile response
-            ProfileResponse profileResponse = new ProfileResponse(
-                    user.getEmail(),
-                    user.getFirstName(),
-                    user.getLastName(),
-                    user.getProfileImage() != null ? user.getProfileImage() : "https://yoururlapi.com/profile.jpeg"
-            );
+            ProfileResponse profileResponse = toProfileResponse(user);
 
             return Response.ok()
                     .entity(ApiResponse.success("Profile updated successfully", profileResponse))
@@ -312,4 +344,92 @@ public class MembershipResource {
                     .build();
         }
     }
+
+    @POST
+    @Path("/profiles/lookup")
+    @ConcurrencyBudget(EndpointClass.READ)
+    @ServiceTokenRequired
+    @SecurityRequirement(name = "serviceToken")
+    @Operation(
+        summary = "Bulk Profile Lookup",
+        description = "Look up profiles for a list of emails and/or ids in one call (requires an RS256 service token in the X-Service-Token header)"
+    )
+    @APIResponses(value = {
+        @APIResponse(
+            responseCode = "200",
+            description = "Profiles retrieved successfully, keyed by the requested email or id; unknown users are omitted",
+            content = @Content(schema = @Schema(implementation = ApiResponse.class))
+        ),
+        @APIResponse(
+            responseCode = "400",
+            description = "Bad request - No emails or ids, or too many of them"
+        ),
+        @APIResponse(
+            responseCode = "401",
+            description = "Unauthorized - Invalid or missing service token"
+        ),
+        @APIResponse(
+            responseCode = "500",
+            description = "Internal server error"
+        )
+    })
+    public Response lookupProfiles(
+        @RequestBody(
+            description = "Emails and/or ids to look up",
+            required = true,
+            content = @Content(schema = @Schema(implementation = ProfileLookupRequest.class))
+        )
+        @Valid ProfileLookupRequest request) {
+        try {
+            Set<String> emails = request.getEmails() != null ? new LinkedHashSet<>(request.getEmails()) : Set.of();
+            Set<Long> ids = request.getIds() != null ? new LinkedHashSet<>(request.getIds()) : Set.of();
+            if (emails.isEmpty() && ids.isEmpty()) {
+                return Response.status(Response.Status.BAD_REQUEST)
+                        .entity(ApiResponse.error("At least one email or id is required"))
+                        .build();
+            }
+
+            // Resolve everything with a single query
+            List<User> users = userRepository.findByEmailsOrIds(emails, ids);
+
+            Map<String, ProfileResponse> profiles = new LinkedHashMap<>();
+            for (User user : users) {
+                ProfileResponse profileResponse = toProfileResponse(user);
+                if (emails.contains(user.getEmail())) {
+                    profiles.put(user.getEmail(), profileResponse);
+                }
+                if (ids.contains(user.id)) {
+                    profiles.put(String.valueOf(user.id), profileResponse);
+                }
+            }
+
+            return Response.ok()
+                    .entity(ApiResponse.success("successful", profiles))
+                    .build();
+
+        } catch (Exception e) {
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                    .entity(ApiResponse.error("Failed to look up profiles: " + e.getMessage()))
+                    .build();
+        }
+    }
+
+    // Postgres SQLSTATE unique_violation, e.g. from the unique email constraint
+    private boolean isUniqueViolation(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sqlException && "23505".equals(sqlException.getSQLState())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private ProfileResponse toProfileResponse(User user) {
+        return new ProfileResponse(
+                user.getEmail(),
+                user.getFirstName(),
+                user.getLastName(),
+                user.getProfileImage() != null ? user.getProfileImage() : "https://yoururlapi.com/profile.jpeg"
+        );
+    }
 }
\ No newline at end of file
@@ -1,5 +1,10 @@
 package org.quarkus.rest.dto;
 
+import io.quarkus.runtime.annotations.RegisterForReflection;
+
+// Resources return Response, so the native build can't see this class or its data payloads
+// (LoginResponse, ProfileResponse) as Jackson types on its own
+@RegisterForReflection
 public class ApiResponse<T> {
     private boolean status;
     private String message;
@@ -1,5 +1,8 @@
 package org.quarkus.rest.dto;
 
+import io.quarkus.runtime.annotations.RegisterForReflection;
+
+@RegisterForReflection
 public class LoginResponse {
     private String token;
 
@@ -0,0 +1,46 @@
+package org.quarkus.rest.dto;
+
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import org.eclipse.microprofile.openapi.annotations.media.Schema;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Schema(description = "Bulk profile lookup request")
+public class ProfileLookupRequest {
+
+    public static final int MAX_SIZE = 100;
+
+    @Schema(description = "User email addresses to look up", example = "[\"joni@gmail.com\"]")
+    @Size(max = MAX_SIZE, message = "At most " + MAX_SIZE + " emails can be looked up at once")
+    private List<@NotNull @Email(message = "Email format is invalid") String> emails = new ArrayList<>();
+
+    @Schema(description = "User ids to look up", example = "[1, 2]")
+    @Size(max = MAX_SIZE, message = "At most " + MAX_SIZE + " ids can be looked up at once")
+    private List<@NotNull Long> ids = new ArrayList<>();
+
+    public ProfileLookupRequest() {}
+
+    public ProfileLookupRequest(List<String> emails, List<Long> ids) {
+        this.emails = emails;
+        this.ids = ids;
+    }
+
+    public List<String> getEmails() {
+        return emails;
+    }
+
+    public void setEmails(List<String> emails) {
+        this.emails = emails;
+    }
+
+    public List<Long> getIds() {
+        return ids;
+    }
+
+    public void setIds(List<Long> ids) {
+        this.ids = ids;
+    }
+}
@@ -1,5 +1,8 @@
 package org.quarkus.rest.dto;
 
+import io.quarkus.runtime.annotations.RegisterForReflection;
+
+@RegisterForReflection
 public class ProfileResponse {
     private String email;
     private String firstName;
@@ -0,0 +1,99 @@
+package org.quarkus.rest.filter;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concurrency limiter that learns its limit from observed latency.
+ *
+ * The limit grows while latency stays close to its long-term average and shrinks
+ * in proportion to how far latency rises above it (gradient). Failed requests
+ * cut the limit multiplicatively (AIMD-style backoff).
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private static final double SMOOTHING = 0.2;
+    private static final double RTT_TOLERANCE = 1.5;
+    private static final double LONG_RTT_WEIGHT = 0.01;
+    private static final double BACKOFF_RATIO = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private volatile double limit;
+
+    // Guarded by this
+    private double longRttNanos;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit) {
+        if (minLimit < 1 || minLimit > maxLimit) {
+            throw new IllegalArgumentException("Invalid concurrency limits: min=" + minLimit + ", max=" + maxLimit);
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    }
+
+    /**
+     * Try to take a slot for a new request
+     * @return true if the request may proceed, false if it should be shed
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= (int) limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Release a slot taken by {@link #tryAcquire()} and feed the sample into the limit
+     * @param rttNanos time the request spent being processed
+     * @param dropped true if the request failed because the service was overloaded
+     */
+    public void release(long rttNanos, boolean dropped) {
+        int inFlightAtCompletion = inFlight.getAndDecrement();
+        update(Math.max(1, rttNanos), inFlightAtCompletion, dropped);
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private synchronized void update(long rttNanos, int inFlightAtCompletion, boolean dropped) {
+        double current = limit;
+        double next;
+
+        if (dropped) {
+            next = current * BACKOFF_RATIO;
+        } else {
+            longRttNanos = longRttNanos == 0
+                    ? rttNanos
+                    : longRttNanos * (1 - LONG_RTT_WEIGHT) + rttNanos * LONG_RTT_WEIGHT;
+
+            // Let the long-term average recover quickly after a latency spike
+            if (longRttNanos > 2 * rttNanos) {
+                longRttNanos *= 0.95;
+            }
+
+            // Don't grow the limit while less than half of it is in use
+            if (inFlightAtCompletion < current / 2) {
+                return;
+            }
+
+            double gradient = Math.max(0.5, Math.min(1.0, RTT_TOLERANCE * longRttNanos / rttNanos));
+            double queueSize = Math.sqrt(current);
+            next = current * (1 - SMOOTHING) + (current * gradient + queueSize) * SMOOTHING;
+        }
+
+        limit = Math.max(minLimit, Math.min(maxLimit, next));
+    }
+}
@@ -0,0 +1,17 @@
+package org.quarkus.rest.filter;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a resource method as limited by the adaptive concurrency budget of the given endpoint class.
+ * Methods without this annotation are not limited.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface ConcurrencyBudget {
+
+    EndpointClass value();
+}
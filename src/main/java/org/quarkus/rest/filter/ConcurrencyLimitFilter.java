@@ -0,0 +1,133 @@
+package org.quarkus.rest.filter;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.Priorities;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerResponseContext;
+import jakarta.ws.rs.container.ResourceInfo;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import org.eclipse.microprofile.config.Config;
+import org.jboss.resteasy.reactive.server.ServerRequestFilter;
+import org.jboss.resteasy.reactive.server.ServerResponseFilter;
+import org.quarkus.rest.dto.ApiResponse;
+
+import java.lang.reflect.Method;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Sheds requests with 503 once the adaptive concurrency limit of their endpoint class is reached.
+ *
+ * The request filter runs on the I/O thread, before blocking endpoints are queued for a worker
+ * thread, so shed requests never wait in that queue. Latency is measured from that point, so
+ * time spent queued for a worker counts towards the limit's gradient.
+ */
+public class ConcurrencyLimitFilter {
+
+    private static final String START_PROPERTY = ConcurrencyLimitFilter.class.getName() + ".start";
+    private static final String LIMITER_PROPERTY = ConcurrencyLimitFilter.class.getName() + ".limiter";
+
+    @Inject
+    Config config;
+
+    @Inject
+    MeterRegistry registry;
+
+    private final Map<EndpointClass, AdaptiveConcurrencyLimiter> limiters = new EnumMap<>(EndpointClass.class);
+
+    @PostConstruct
+    void init() {
+        int cores = Runtime.getRuntime().availableProcessors();
+        // Same default as Quarkus' worker pool; limits beyond it would only queue
+        int workerThreads = config.getOptionalValue("quarkus.thread-pool.max-threads", Integer.class)
+                .orElse(Math.max(200, 8 * cores));
+
+        Map<EndpointClass, Integer> maxLimits = new EnumMap<>(EndpointClass.class);
+        maxLimits.put(EndpointClass.CPU, maxLimit(EndpointClass.CPU, 4 * cores));
+        maxLimits.put(EndpointClass.READ, maxLimit(EndpointClass.READ, workerThreads / 2));
+        maxLimits.put(EndpointClass.WRITE, maxLimit(EndpointClass.WRITE, workerThreads / 4));
+
+        // Scale the budgets down together if they add up to more worker threads than there are
+        int total = maxLimits.values().stream().mapToInt(Integer::intValue).sum();
+        double scale = Math.min(1.0, (double) workerThreads / total);
+
+        limiters.put(EndpointClass.CPU, createLimiter(EndpointClass.CPU, 2 * cores, maxLimits, scale));
+        limiters.put(EndpointClass.READ, createLimiter(EndpointClass.READ, workerThreads / 8, maxLimits, scale));
+        limiters.put(EndpointClass.WRITE, createLimiter(EndpointClass.WRITE, workerThreads / 16, maxLimits, scale));
+    }
+
+    // After authentication filters such as ServiceTokenFilter, so rejected callers never take a slot
+    @ServerRequestFilter(nonBlocking = true, priority = Priorities.USER)
+    public Response acquire(ContainerRequestContext requestContext, ResourceInfo resourceInfo) {
+        Method method = resourceInfo.getResourceMethod();
+        ConcurrencyBudget budget = method != null ? method.getAnnotation(ConcurrencyBudget.class) : null;
+        if (budget == null) {
+            return null;
+        }
+
+        long start = System.nanoTime();
+        AdaptiveConcurrencyLimiter limiter = limiters.get(budget.value());
+        if (!limiter.tryAcquire()) {
+            registry.counter("http.concurrency.shed", "endpoint", tag(budget.value())).increment();
+            return Response.status(Response.Status.SERVICE_UNAVAILABLE)
+                    .header("Retry-After", "1")
+                    .type(MediaType.APPLICATION_JSON)
+                    .entity(ApiResponse.error("Server is busy, please retry later"))
+                    .build();
+        }
+
+        requestContext.setProperty(LIMITER_PROPERTY, limiter);
+        requestContext.setProperty(START_PROPERTY, start);
+        return null;
+    }
+
+    @ServerResponseFilter
+    public void release(ContainerRequestContext requestContext, ContainerResponseContext responseContext) {
+        // Only requests that took a slot carry these properties; shed requests must not release one
+        if (!(requestContext.getProperty(LIMITER_PROPERTY) instanceof AdaptiveConcurrencyLimiter limiter)) {
+            return;
+        }
+        requestContext.removeProperty(LIMITER_PROPERTY);
+
+        long start = (Long) requestContext.getProperty(START_PROPERTY);
+        boolean dropped = responseContext.getStatus() >= 500;
+        limiter.release(System.nanoTime() - start, dropped);
+    }
+
+    AdaptiveConcurrencyLimiter limiter(EndpointClass endpointClass) {
+        return limiters.get(endpointClass);
+    }
+
+    private int maxLimit(EndpointClass endpointClass, int defaultMax) {
+        return config.getOptionalValue(prefix(endpointClass) + "max-limit", Integer.class).orElse(defaultMax);
+    }
+
+    private AdaptiveConcurrencyLimiter createLimiter(EndpointClass endpointClass, int defaultInitial,
+                                                     Map<EndpointClass, Integer> maxLimits, double scale) {
+        int min = config.getOptionalValue(prefix(endpointClass) + "min-limit", Integer.class).orElse(1);
+        int max = Math.max(min, (int) (maxLimits.get(endpointClass) * scale));
+        int initial = config.getOptionalValue(prefix(endpointClass) + "initial-limit", Integer.class)
+                .orElse(defaultInitial);
+
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(initial, min, max);
+        Gauge.builder("http.concurrency.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                .tag("endpoint", tag(endpointClass))
+                .register(registry);
+        Gauge.builder("http.concurrency.inflight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+                .tag("endpoint", tag(endpointClass))
+                .register(registry);
+        return limiter;
+    }
+
+    private static String prefix(EndpointClass endpointClass) {
+        return "membership.concurrency." + tag(endpointClass) + ".";
+    }
+
+    private static String tag(EndpointClass endpointClass) {
+        return endpointClass.name().toLowerCase();
+    }
+}
@@ -0,0 +1,13 @@
+package org.quarkus.rest.filter;
+
+/**
+ * Endpoint classes that get their own concurrency budget.
+ */
+public enum EndpointClass {
+    /** Password hashing and token signing, e.g. login and registration */
+    CPU,
+    /** Read-only lookups, e.g. get profile */
+    READ,
+    /** Writes to the database, e.g. update profile */
+    WRITE
+}
@@ -0,0 +1,42 @@
+package org.quarkus.rest.filter;
+
+import jakarta.inject.Inject;
+import jakarta.ws.rs.Priorities;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ResourceInfo;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import org.jboss.resteasy.reactive.server.ServerRequestFilter;
+import org.quarkus.rest.dto.ApiResponse;
+import org.quarkus.rest.service.ServiceTokenVerifier;
+
+import java.lang.reflect.Method;
+
+/**
+ * Rejects requests to {@link ServiceTokenRequired} methods without a valid service token.
+ *
+ * Runs on the I/O thread with authentication priority, so it comes before the concurrency
+ * limit filter and before bean validation: unauthenticated callers never take a budget slot
+ * and never see validation messages.
+ */
+public class ServiceTokenFilter {
+
+    @Inject
+    ServiceTokenVerifier serviceTokenVerifier;
+
+    @ServerRequestFilter(nonBlocking = true, priority = Priorities.AUTHENTICATION)
+    public Response authenticate(ContainerRequestContext requestContext, ResourceInfo resourceInfo) {
+        Method method = resourceInfo.getResourceMethod();
+        if (method == null || !method.isAnnotationPresent(ServiceTokenRequired.class)) {
+            return null;
+        }
+
+        if (serviceTokenVerifier.verify(requestContext.getHeaderString(ServiceTokenVerifier.HEADER)).isEmpty()) {
+            return Response.status(Response.Status.UNAUTHORIZED)
+                    .type(MediaType.APPLICATION_JSON)
+                    .entity(ApiResponse.error("Invalid or missing service token"))
+                    .build();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,15 @@
+package org.quarkus.rest.filter;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a resource method as callable only by internal services with a valid service token
+ * in the X-Service-Token header. Requests without one are rejected with 401 by {@link ServiceTokenFilter}.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface ServiceTokenRequired {
+}
@@ -0,0 +1,93 @@
+package org.quarkus.rest.importer;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+
+/**
+ * Progress of an import, saved next to the input file after every committed batch
+ * so an interrupted import resumes where it stopped. It also records the size and
+ * modification time of the file, since its offset is meaningless for a changed file.
+ */
+class ImportCheckpoint {
+
+    private final Path path;
+
+    long offset;
+    long lineNumber;
+    long imported;
+    long skipped;
+    long rejected;
+    long fileSize = -1;
+    long lastModified = -1;
+
+    private ImportCheckpoint(Path path) {
+        this.path = path;
+    }
+
+    static ImportCheckpoint load(Path file) throws IOException {
+        ImportCheckpoint checkpoint = new ImportCheckpoint(file.resolveSibling(file.getFileName() + ".checkpoint"));
+        if (Files.exists(checkpoint.path)) {
+            Properties properties = new Properties();
+            try (Reader reader = Files.newBufferedReader(checkpoint.path)) {
+                properties.load(reader);
+            }
+            checkpoint.offset = Long.parseLong(properties.getProperty("offset", "0"));
+            checkpoint.lineNumber = Long.parseLong(properties.getProperty("lineNumber", "0"));
+            checkpoint.imported = Long.parseLong(properties.getProperty("imported", "0"));
+            checkpoint.skipped = Long.parseLong(properties.getProperty("skipped", "0"));
+            checkpoint.rejected = Long.parseLong(properties.getProperty("rejected", "0"));
+            checkpoint.fileSize = Long.parseLong(properties.getProperty("fileSize", "-1"));
+            checkpoint.lastModified = Long.parseLong(properties.getProperty("lastModified", "-1"));
+        }
+        return checkpoint;
+    }
+
+    void save() throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty("offset", String.valueOf(offset));
+        properties.setProperty("lineNumber", String.valueOf(lineNumber));
+        properties.setProperty("imported", String.valueOf(imported));
+        properties.setProperty("skipped", String.valueOf(skipped));
+        properties.setProperty("rejected", String.valueOf(rejected));
+        properties.setProperty("fileSize", String.valueOf(fileSize));
+        properties.setProperty("lastModified", String.valueOf(lastModified));
+
+        // Write then rename, so a crash never leaves a truncated checkpoint behind
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (Writer writer = Files.newBufferedWriter(temp)) {
+            properties.store(writer, "User import checkpoint");
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    boolean isResumed() {
+        return offset > 0;
+    }
+
+    /**
+     * Check that the checkpoint was written for the file as it is now
+     * @param file the input file
+     * @return false if its size or modification time differ from the recorded ones
+     */
+    boolean matches(Path file) throws IOException {
+        return fileSize == Files.size(file) && lastModified == Files.getLastModifiedTime(file).toMillis();
+    }
+
+    /**
+     * Record the size and modification time of the input file
+     * @param file the input file
+     */
+    void recordFile(Path file) throws IOException {
+        fileSize = Files.size(file);
+        lastModified = Files.getLastModifiedTime(file).toMillis();
+    }
+
+    Path path() {
+        return path;
+    }
+}
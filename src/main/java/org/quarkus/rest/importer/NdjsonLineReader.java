@@ -0,0 +1,118 @@
+package org.quarkus.rest.importer;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads NDJSON lines from a file through memory-mapped windows, so files larger than the heap
+ * (or than 2 GB) can be streamed without copying them through a read buffer first.
+ */
+class NdjsonLineReader implements AutoCloseable {
+
+    private static final long WINDOW_SIZE = 64L * 1024 * 1024;
+
+    private final FileChannel channel;
+    private final long size;
+    private final long windowSize;
+
+    private MappedByteBuffer window;
+    private long windowStart;
+    private long position;
+    private long lineNumber;
+
+    /**
+     * Open a reader positioned at a line boundary
+     * @param file the NDJSON file
+     * @param offset byte offset of the first line to read
+     * @param lineNumber number of lines before that offset
+     */
+    NdjsonLineReader(Path file, long offset, long lineNumber) throws IOException {
+        this(file, offset, lineNumber, WINDOW_SIZE);
+    }
+
+    /**
+     * Open a reader with a custom window size, which also bounds the line length
+     */
+    NdjsonLineReader(Path file, long offset, long lineNumber, long windowSize) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        this.size = channel.size();
+        this.windowSize = windowSize;
+        this.position = offset;
+        this.lineNumber = lineNumber;
+    }
+
+    /**
+     * Read the next non-blank line
+     * @return the line without its line terminator, or null at end of file
+     */
+    byte[] nextLine() throws IOException {
+        while (position < size) {
+            if (window == null || position < windowStart || position >= windowStart + window.limit()) {
+                map(position);
+            }
+
+            int start = (int) (position - windowStart);
+            int limit = window.limit();
+            int end = start;
+            while (end < limit && window.get(end) != '\n') {
+                end++;
+            }
+
+            if (end == limit && windowStart + limit < size) {
+                // The line continues past this window: remap starting at the line
+                if (start == 0) {
+                    throw new IOException("Line " + (lineNumber + 1) + " is longer than " + windowSize + " bytes");
+                }
+                map(position);
+                continue;
+            }
+
+            position = windowStart + Math.min(end + 1, limit);
+            lineNumber++;
+
+            if (end > start && window.get(end - 1) == '\r') {
+                end--;
+            }
+            if (end == start) {
+                continue;
+            }
+
+            byte[] line = new byte[end - start];
+            window.get(start, line);
+            return line;
+        }
+        return null;
+    }
+
+    /**
+     * @return byte offset just after the last line returned
+     */
+    long position() {
+        return position;
+    }
+
+    /**
+     * @return number of lines read so far, including blank lines
+     */
+    long lineNumber() {
+        return lineNumber;
+    }
+
+    long size() {
+        return size;
+    }
+
+    @Override
+    public void close() throws IOException {
+        window = null;
+        channel.close();
+    }
+
+    private void map(long offset) throws IOException {
+        windowStart = offset;
+        window = channel.map(FileChannel.MapMode.READ_ONLY, offset, Math.min(windowSize, size - offset));
+    }
+}
@@ -0,0 +1,231 @@
+package org.quarkus.rest.importer;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.postgresql.PGConnection;
+import org.quarkus.rest.dto.RegistrationRequest;
+import org.quarkus.rest.service.PasswordService;
+import org.quarkus.rest.service.RegisteredEmailFilter;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk import of users from an NDJSON file with one {@link RegistrationRequest} per line.
+ *
+ * Lines are validated with the same constraints as the registration endpoint, passwords are
+ * hashed in parallel on all cores, and each batch is loaded with Postgres COPY in its own
+ * transaction followed by a checkpoint. Re-running an interrupted import resumes from the
+ * last checkpoint; emails that already exist are skipped.
+ *
+ * Run it through the import-users command, which uses the %import profile: no HTTP server,
+ * no scheduler and no schema generation.
+ */
+@ApplicationScoped
+public class UserImportService {
+
+    private static final int BATCH_SIZE = 1000;
+    private static final String DEFAULT_PROFILE_IMAGE = "https://yoururlapi.com/profile.jpeg";
+
+    private static final String CREATE_STAGING_TABLE = """
+            CREATE TEMPORARY TABLE IF NOT EXISTS users_import (
+                email text, first_name text, last_name text, password text
+            ) ON COMMIT DELETE ROWS""";
+
+    private static final String COPY_STAGING_TABLE =
+            "COPY users_import (email, first_name, last_name, password) FROM STDIN WITH (FORMAT csv)";
+
+    // Each imported row takes a whole value of the Hibernate sequence, which can never
+    // overlap a block of ids that the application has allocated from it
+    private static final String INSERT_USERS = """
+            INSERT INTO users (id, email, first_name, last_name, password, profile_image, created_at, updated_at)
+            SELECT nextval('users_seq'), email, first_name, last_name, password, ?, localtimestamp, localtimestamp
+            FROM users_import
+            ON CONFLICT (email) DO NOTHING""";
+
+    // Running instances add these emails to their registered-email filter when the batch commits.
+    // Emails that were skipped as already registered are sent too, which is harmless.
+    private static final String NOTIFY_REGISTERED = "SELECT pg_notify('" + RegisteredEmailFilter.CHANNEL + "', email) FROM users_import";
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @Inject
+    Validator validator;
+
+    @Inject
+    PasswordService passwordService;
+
+    @Inject
+    DataSource dataSource;
+
+    /**
+     * Import users from an NDJSON file, resuming from its checkpoint if there is one
+     * @param file the NDJSON file
+     * @return process exit code, 0 if the whole file was processed
+     */
+    public int importFile(Path file) throws IOException, SQLException, InterruptedException {
+        if (!Files.isRegularFile(file)) {
+            System.err.println("Import file not found: " + file);
+            return 1;
+        }
+
+        ImportCheckpoint checkpoint = ImportCheckpoint.load(file);
+        if (checkpoint.isResumed()) {
+            if (!checkpoint.matches(file)) {
+                System.err.println(file + " has changed since " + checkpoint.path()
+                        + " was written. Delete the checkpoint to import the file from the start.");
+                return 1;
+            }
+            System.out.println("Resuming import of " + file + " at line " + checkpoint.lineNumber);
+        }
+        checkpoint.recordFile(file);
+
+        int threads = Runtime.getRuntime().availableProcessors();
+        long started = System.nanoTime();
+        long importedAtStart = checkpoint.imported + checkpoint.skipped;
+
+        try (NdjsonLineReader reader = new NdjsonLineReader(file, checkpoint.offset, checkpoint.lineNumber);
+             ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+
+            List<Future<ImportRow>> batch = new ArrayList<>(BATCH_SIZE);
+            byte[] line;
+            do {
+                line = reader.nextLine();
+                if (line != null) {
+                    long lineNumber = reader.lineNumber();
+                    byte[] json = line;
+                    batch.add(executor.submit(() -> prepare(lineNumber, json)));
+                }
+
+                if (batch.size() == BATCH_SIZE || (line == null && !batch.isEmpty())) {
+                    load(batch, checkpoint);
+                    batch.clear();
+
+                    checkpoint.offset = reader.position();
+                    checkpoint.lineNumber = reader.lineNumber();
+                    checkpoint.save();
+                    printProgress(checkpoint, reader, started, importedAtStart);
+                }
+            } while (line != null);
+        }
+
+        System.out.println("Import finished: " + checkpoint.imported + " imported, "
+                + checkpoint.skipped + " skipped as already registered, "
+                + checkpoint.rejected + " rejected. Checkpoint: " + checkpoint.path());
+        return 0;
+    }
+
+    /**
+     * Parse, validate and hash one line. Runs on the hashing pool.
+     */
+    private ImportRow prepare(long lineNumber, byte[] json) {
+        RegistrationRequest request;
+        try {
+            request = objectMapper.readValue(json, RegistrationRequest.class);
+        } catch (JsonProcessingException e) {
+            return ImportRow.rejected(lineNumber, "Invalid JSON: " + e.getOriginalMessage());
+        } catch (IOException e) {
+            return ImportRow.rejected(lineNumber, "Invalid JSON: " + e.getMessage());
+        }
+
+        Set<ConstraintViolation<RegistrationRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            return ImportRow.rejected(lineNumber, violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining(", ")));
+        }
+
+        return new ImportRow(lineNumber, request, passwordService.encrypt(request.getPassword()), null);
+    }
+
+    private void load(List<Future<ImportRow>> batch, ImportCheckpoint checkpoint) throws SQLException, InterruptedException {
+        StringBuilder csv = new StringBuilder();
+        int rows = 0;
+        for (Future<ImportRow> future : batch) {
+            ImportRow row;
+            try {
+                row = future.get();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Failed to prepare import row", e.getCause());
+            }
+
+            if (row.error() != null) {
+                checkpoint.rejected++;
+                System.out.println("Line " + row.lineNumber() + " rejected: " + row.error());
+                continue;
+            }
+
+            appendCsv(csv, row.request().getEmail()).append(',');
+            appendCsv(csv, row.request().getFirstName()).append(',');
+            appendCsv(csv, row.request().getLastName()).append(',');
+            appendCsv(csv, row.passwordHash()).append('\n');
+            rows++;
+        }
+
+        if (rows == 0) {
+            return;
+        }
+
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try (Statement statement = connection.createStatement();
+                 PreparedStatement insert = connection.prepareStatement(INSERT_USERS)) {
+                statement.execute(CREATE_STAGING_TABLE);
+                connection.unwrap(PGConnection.class).getCopyAPI()
+                        .copyIn(COPY_STAGING_TABLE, new StringReader(csv.toString()));
+
+                insert.setString(1, DEFAULT_PROFILE_IMAGE);
+                int inserted = insert.executeUpdate();
+                statement.execute(NOTIFY_REGISTERED);
+                connection.commit();
+
+                checkpoint.imported += inserted;
+                checkpoint.skipped += rows - inserted;
+            } catch (SQLException | IOException e) {
+                connection.rollback();
+                throw e instanceof SQLException sqlException ? sqlException : new SQLException("COPY failed", e);
+            }
+        }
+    }
+
+    private void printProgress(ImportCheckpoint checkpoint, NdjsonLineReader reader, long started, long processedAtStart) {
+        double seconds = Math.max(1, System.nanoTime() - started) / 1_000_000_000.0;
+        long processed = checkpoint.imported + checkpoint.skipped - processedAtStart;
+        double percent = reader.size() == 0 ? 100 : 100.0 * reader.position() / reader.size();
+        System.out.printf("Line %d (%.1f%%): %d imported, %d skipped, %d rejected, %.0f rows/s%n",
+                checkpoint.lineNumber, percent, checkpoint.imported, checkpoint.skipped,
+                checkpoint.rejected, processed / seconds);
+    }
+
+    private static StringBuilder appendCsv(StringBuilder csv, String value) {
+        return csv.append('"').append(value.replace("\"", "\"\"")).append('"');
+    }
+
+    private record ImportRow(long lineNumber, RegistrationRequest request, String passwordHash, String error) {
+
+        static ImportRow rejected(long lineNumber, String error) {
+            return new ImportRow(lineNumber, null, null, error);
+        }
+    }
+}
@@ -3,6 +3,8 @@ package org.quarkus.rest.repository;
 import org.quarkus.rest.entity.User;
 import io.quarkus.hibernate.orm.panache.PanacheRepository;
 import jakarta.enterprise.context.ApplicationScoped;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @ApplicationScoped
@@ -16,4 +18,17 @@ public class UserRepository implements PanacheRepository<User> {
     public boolean existsByEmail(String email) {
         return count("email", email) > 0;
     }
+
+    public List<User> findByEmailsOrIds(Collection<String> emails, Collection<Long> ids) {
+        if (emails.isEmpty() && ids.isEmpty()) {
+            return List.of();
+        }
+        if (ids.isEmpty()) {
+            return list("email in ?1", emails);
+        }
+        if (emails.isEmpty()) {
+            return list("id in ?1", ids);
+        }
+        return list("email in ?1 or id in ?2", emails, ids);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,115 @@
+package org.quarkus.rest.service;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Thread-safe Bloom filter of strings whose bit array lives in a direct (off-heap) buffer.
+ */
+class BloomFilter {
+
+    private static final VarHandle WORDS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    private final ByteBuffer bits;
+    private final long bitCount;
+    private final int hashCount;
+    private final AtomicLong entries = new AtomicLong();
+
+    private BloomFilter(long bitCount, int hashCount) {
+        this.bits = ByteBuffer.allocateDirect((int) (bitCount / 8));
+        this.bitCount = bitCount;
+        this.hashCount = hashCount;
+    }
+
+    /**
+     * Create a filter sized for the given number of entries
+     * @param expectedEntries number of entries the filter should hold
+     * @param falsePositiveRate target false-positive rate at that number of entries
+     * @return an empty filter
+     */
+    static BloomFilter create(long expectedEntries, double falsePositiveRate) {
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("False-positive rate must be between 0 and 1: " + falsePositiveRate);
+        }
+        long entries = Math.max(1, expectedEntries);
+        long optimalBits = (long) Math.ceil(-entries * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        // Whole 64-bit words, and no more than a direct buffer can hold
+        long bitCount = Math.min((optimalBits + 63) / 64 * 64, (Integer.MAX_VALUE / 8L) * 64);
+        int hashCount = (int) Math.max(1, Math.round((double) bitCount / entries * Math.log(2)));
+        return new BloomFilter(bitCount, hashCount);
+    }
+
+    /**
+     * Add a value. It only counts as an entry if it set at least one new bit, so adding the
+     * same value again, as a notification for an email already in the snapshot does, leaves
+     * the expected false-positive rate unchanged.
+     */
+    void add(String value) {
+        long hash1 = hash(value);
+        long hash2 = mix(hash1 + 0x9E3779B97F4A7C15L);
+        boolean changed = false;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(hash1 + i * hash2, bitCount);
+            long mask = 1L << bit;
+            long previous = (long) WORDS.getAndBitwiseOr(bits, (int) (bit >>> 6) * 8, mask);
+            changed |= (previous & mask) == 0;
+        }
+        if (changed) {
+            entries.incrementAndGet();
+        }
+    }
+
+    /**
+     * @return false if the value was definitely never added, true if it may have been
+     */
+    boolean mightContain(String value) {
+        long hash1 = hash(value);
+        long hash2 = mix(hash1 + 0x9E3779B97F4A7C15L);
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(hash1 + i * hash2, bitCount);
+            long word = (long) WORDS.getVolatile(bits, (int) (bit >>> 6) * 8);
+            if ((word & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return expected false-positive rate for the number of entries added so far
+     */
+    double expectedFalsePositiveRate() {
+        return Math.pow(1 - Math.exp(-(double) hashCount * entries.get() / bitCount), hashCount);
+    }
+
+    long entries() {
+        return entries.get();
+    }
+
+    long memoryBytes() {
+        return bits.capacity();
+    }
+
+    // FNV-1a over the UTF-8 bytes, finished with the murmur3 mixer for better bit spread
+    private static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
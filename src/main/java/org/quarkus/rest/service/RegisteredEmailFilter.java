@@ -0,0 +1,289 @@
+package org.quarkus.rest.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.quarkus.rest.repository.UserRepository;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Bloom filter of registered emails, so lookups for unknown emails can skip the database.
+ *
+ * Every insert into the users table, on any instance or by the import, sends the email on the
+ * {@value #CHANNEL} Postgres channel. Each instance listens on it, then builds the filter from
+ * the table, so every email is either in that snapshot or arrives as a notification. A miss is
+ * only reported while the listener is connected and the filter was built after it started
+ * listening; before that, and after the connection is lost until the next build, every email
+ * is reported as possibly registered.
+ */
+@ApplicationScoped
+public class RegisteredEmailFilter {
+
+    public static final String CHANNEL = "registered_emails";
+
+    // pg_notify returns void, which has no JDBC mapping, so select a constant instead
+    private static final String NOTIFY = "select 1 from pg_notify('" + CHANNEL + "', ?1)";
+    private static final String COUNT_USERS = "select count(*) from users";
+    private static final String SELECT_EMAILS = "select email from users";
+    private static final int FETCH_SIZE = 10_000;
+    private static final int POLL_TIMEOUT_MILLIS = 1000;
+    private static final long RECONNECT_DELAY_MILLIS = 5000;
+
+    @ConfigProperty(name = "membership.email-filter.enabled", defaultValue = "true")
+    boolean enabled;
+
+    @ConfigProperty(name = "membership.email-filter.expected-emails", defaultValue = "1000000")
+    long expectedEmails;
+
+    @ConfigProperty(name = "membership.email-filter.false-positive-rate", defaultValue = "0.01")
+    double falsePositiveRate;
+
+    @Inject
+    UserRepository userRepository;
+
+    @Inject
+    DataSource dataSource;
+
+    @Inject
+    MeterRegistry registry;
+
+    private volatile BloomFilter current;
+    // Filter being rebuilt, which also receives emails registered while the rebuild runs
+    private volatile BloomFilter pending;
+
+    // Written by the listener thread: listening is true while it is subscribed to the channel,
+    // the epoch changes on every new subscription and synced is true once current covers it
+    volatile boolean listening;
+    volatile long listenEpoch;
+    volatile boolean synced;
+
+    private volatile boolean running;
+    private Thread listener;
+
+    // Runs between the two reads in addToFilters, so tests can swap the filter at that point
+    Runnable afterPendingRead;
+
+    private Counter definiteMisses;
+    private Counter falsePositives;
+
+    @PostConstruct
+    void init() {
+        definiteMisses = registry.counter("email.filter.definite.misses");
+        falsePositives = registry.counter("email.filter.false.positives");
+        Gauge.builder("email.filter.memory", this, filter -> filter.current != null ? filter.current.memoryBytes() : 0)
+                .baseUnit("bytes")
+                .register(registry);
+        Gauge.builder("email.filter.entries", this, filter -> filter.current != null ? filter.current.entries() : 0)
+                .register(registry);
+        Gauge.builder("email.filter.false.positive.rate", this,
+                        filter -> filter.current != null ? filter.current.expectedFalsePositiveRate() : 1)
+                .description("Expected false-positive rate for the current number of entries")
+                .register(registry);
+        Gauge.builder("email.filter.synced", this, filter -> filter.synced ? 1 : 0)
+                .description("1 while misses of the filter are trusted")
+                .register(registry);
+    }
+
+    void onStart(@Observes StartupEvent event) {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        listener = new Thread(this::listen, "registered-email-listener");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    void onStop(@Observes ShutdownEvent event) {
+        running = false;
+        if (listener != null) {
+            listener.interrupt();
+        }
+    }
+
+    /**
+     * Check whether an email may be registered
+     * @param email the email to check
+     * @return false if the email is definitely not registered, true if it may be
+     */
+    public boolean mightContain(String email) {
+        BloomFilter filter = current;
+        if (!synced || filter == null || filter.mightContain(email)) {
+            return true;
+        }
+        definiteMisses.increment();
+        return false;
+    }
+
+    /**
+     * Add a newly registered email. Call this inside the transaction that inserts the user,
+     * so the notification to every instance is sent when it commits.
+     * @param email the registered email
+     */
+    public void add(String email) {
+        addToFilters(email);
+        userRepository.getEntityManager()
+                .createNativeQuery(NOTIFY)
+                .setParameter(1, email)
+                .getSingleResult();
+    }
+
+    /**
+     * Record that an email passed the filter but was not found in the database
+     */
+    public void recordFalsePositive() {
+        if (synced) {
+            falsePositives.increment();
+        }
+    }
+
+    /**
+     * Rebuild periodically so the filter is resized as the table grows
+     */
+    @Scheduled(every = "${membership.email-filter.rebuild-interval}", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void scheduledRebuild() throws SQLException {
+        if (synced) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Build a new filter from the users table and install it, unless the listener lost its
+     * subscription meanwhile and notifications may have been missed
+     * @return true if the new filter was installed
+     */
+    synchronized boolean rebuild() throws SQLException {
+        long epoch = listenEpoch;
+        if (!listening) {
+            return false;
+        }
+
+        try (Connection connection = dataSource.getConnection()) {
+            // Postgres only streams results with a fetch size inside a transaction
+            connection.setAutoCommit(false);
+            try (Statement statement = connection.createStatement()) {
+                long users;
+                try (ResultSet count = statement.executeQuery(COUNT_USERS)) {
+                    count.next();
+                    users = count.getLong(1);
+                }
+
+                BloomFilter filter = startRebuild(users);
+                boolean installed = false;
+                try {
+                    statement.setFetchSize(FETCH_SIZE);
+                    try (ResultSet emails = statement.executeQuery(SELECT_EMAILS)) {
+                        while (emails.next()) {
+                            filter.add(emails.getString(1));
+                        }
+                    }
+                    installed = finishRebuild(filter, epoch);
+                } finally {
+                    if (!installed) {
+                        pending = null;
+                    }
+                }
+                return installed;
+            } finally {
+                connection.rollback();
+            }
+        }
+    }
+
+    BloomFilter startRebuild(long users) {
+        BloomFilter filter = BloomFilter.create(Math.max(expectedEmails, users * 2), falsePositiveRate);
+        pending = filter;
+        return filter;
+    }
+
+    boolean finishRebuild(BloomFilter filter, long epoch) {
+        if (!listening || epoch != listenEpoch) {
+            pending = null;
+            return false;
+        }
+        // addToFilters reads pending before current, so an add that missed pending finds the
+        // new filter in current
+        current = filter;
+        pending = null;
+        return true;
+    }
+
+    void addToFilters(String email) {
+        // Pending first: if finishRebuild installs it between the two reads, current is read
+        // afterwards and already is the new filter, so the email cannot end up only in the old one
+        BloomFilter building = pending;
+        if (building != null) {
+            building.add(email);
+        }
+        if (afterPendingRead != null) {
+            afterPendingRead.run();
+        }
+        BloomFilter filter = current;
+        if (filter != null && filter != building) {
+            filter.add(email);
+        }
+    }
+
+    private void listen() {
+        while (running) {
+            try (Connection connection = dataSource.getConnection();
+                 Statement statement = connection.createStatement()) {
+                statement.execute("LISTEN " + CHANNEL);
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                listenEpoch++;
+                listening = true;
+
+                // Build from a snapshot taken after subscribing, then apply what arrived while building
+                if (rebuild()) {
+                    receive(pgConnection, 0);
+                    synced = true;
+                    System.out.println("Registered email filter ready with " + current.entries() + " emails");
+                }
+
+                while (running) {
+                    receive(pgConnection, POLL_TIMEOUT_MILLIS);
+                }
+            } catch (SQLException | RuntimeException e) {
+                System.err.println("Registered email filter listener failed, retrying: " + e.getMessage());
+            } finally {
+                synced = false;
+                listening = false;
+            }
+
+            if (running) {
+                try {
+                    Thread.sleep(RECONNECT_DELAY_MILLIS);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+    }
+
+    // A timeout of 0 only takes notifications that have already arrived
+    private void receive(PGConnection connection, int timeoutMillis) throws SQLException {
+        PGNotification[] notifications = timeoutMillis > 0
+                ? connection.getNotifications(timeoutMillis)
+                : connection.getNotifications();
+        if (notifications != null) {
+            for (PGNotification notification : notifications) {
+                addToFilters(notification.getParameter());
+            }
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package org.quarkus.rest.service;
+
+import io.smallrye.jwt.auth.principal.JWTAuthContextInfo;
+import io.smallrye.jwt.auth.principal.JWTParser;
+import io.smallrye.jwt.auth.principal.ParseException;
+import io.quarkus.runtime.Startup;
+import io.smallrye.jwt.util.KeyUtils;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.eclipse.microprofile.jwt.JsonWebToken;
+
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.security.PublicKey;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Verifies tokens of internal services.
+ *
+ * Service tokens are RS256-signed by the calling service and checked against its public key,
+ * issuer and audience. They share nothing with user tokens, which TokenService signs with the
+ * HS256 secret, so a service never needs the secret that could mint user tokens.
+ */
+@Startup
+@ApplicationScoped
+public class ServiceTokenVerifier {
+
+    public static final String HEADER = "X-Service-Token";
+
+    @ConfigProperty(name = "membership.service-token.public-key-location")
+    Optional<String> publicKeyLocation;
+
+    @ConfigProperty(name = "membership.service-token.issuer")
+    String issuer;
+
+    @ConfigProperty(name = "membership.service-token.audience")
+    String audience;
+
+    @Inject
+    JWTParser parser;
+
+    private JWTAuthContextInfo contextInfo;
+
+    @PostConstruct
+    void init() {
+        if (publicKeyLocation.isPresent()) {
+            // Load the key once at startup: tokens are verified on the I/O thread, which must not read files
+            PublicKey publicKey;
+            try {
+                publicKey = KeyUtils.readPublicKey(publicKeyLocation.get());
+            } catch (IOException | GeneralSecurityException e) {
+                throw new IllegalStateException("Cannot read service token public key " + publicKeyLocation.get(), e);
+            }
+            contextInfo = new JWTAuthContextInfo(publicKey, issuer);
+            contextInfo.setExpectedAudience(Set.of(audience));
+        }
+    }
+
+    /**
+     * Verify a service token
+     * @param token the raw token, may be null
+     * @return the verified token, or empty if it is missing, invalid or service tokens are not configured
+     */
+    public Optional<JsonWebToken> verify(String token) {
+        if (token == null || token.isBlank() || contextInfo == null) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(parser.parse(token, contextInfo));
+        } catch (ParseException e) {
+            return Optional.empty();
+        }
+    }
+}
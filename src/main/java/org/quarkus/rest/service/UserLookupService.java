@@ -0,0 +1,103 @@
+package org.quarkus.rest.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.quarkus.rest.entity.User;
+import org.quarkus.rest.repository.UserRepository;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Single-flight wrapper around {@link UserRepository#findByEmail(String)}.
+ * Concurrent lookups for the same email share one in-flight query and its result.
+ *
+ * Only use this for read-only paths: followers receive the leader's entity instance,
+ * which is not attached to their own persistence context.
+ */
+@ApplicationScoped
+public class UserLookupService {
+
+    @Inject
+    UserRepository userRepository;
+
+    @Inject
+    RegisteredEmailFilter registeredEmailFilter;
+
+    @Inject
+    MeterRegistry registry;
+
+    private final ConcurrentHashMap<String, CompletableFuture<Optional<User>>> inFlight = new ConcurrentHashMap<>();
+
+    private Counter lookups;
+    private Counter coalesced;
+
+    @PostConstruct
+    void init() {
+        lookups = registry.counter("user.lookup.requests");
+        coalesced = registry.counter("user.lookup.coalesced");
+        Gauge.builder("user.lookup.coalescing.ratio", this, UserLookupService::coalescingRatio)
+                .description("Share of user lookups served by another request's in-flight query")
+                .register(registry);
+    }
+
+    /**
+     * Find user by email, joining an in-flight query for the same email if there is one.
+     * Emails the registered email filter has never seen return empty without a query.
+     * @param email the user email
+     * @return the user, or empty if not found
+     */
+    public Optional<User> findByEmail(String email) {
+        if (!registeredEmailFilter.mightContain(email)) {
+            return Optional.empty();
+        }
+        lookups.increment();
+
+        CompletableFuture<Optional<User>> call = new CompletableFuture<>();
+        CompletableFuture<Optional<User>> existing = inFlight.putIfAbsent(email, call);
+        if (existing != null) {
+            coalesced.increment();
+            return await(existing);
+        }
+
+        try {
+            Optional<User> result = userRepository.findByEmail(email);
+            if (result.isEmpty()) {
+                registeredEmailFilter.recordFalsePositive();
+            }
+            call.complete(result);
+            return result;
+        } catch (Throwable e) {
+            // Errors too, otherwise followers would wait in join() forever
+            call.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(email, call);
+        }
+    }
+
+    double coalescingRatio() {
+        double total = lookups.count();
+        return total == 0 ? 0 : coalesced.count() / total;
+    }
+
+    private Optional<User> await(CompletableFuture<Optional<User>> call) {
+        try {
+            return call.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
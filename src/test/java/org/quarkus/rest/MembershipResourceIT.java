@@ -0,0 +1,8 @@
+package org.quarkus.rest;
+
+import io.quarkus.test.junit.QuarkusIntegrationTest;
+
+@QuarkusIntegrationTest
+class MembershipResourceIT extends MembershipResourceTest {
+    // Execute the same tests but in packaged mode, including the native executable.
+}
@@ -0,0 +1,257 @@
+package org.quarkus.rest;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import io.restassured.response.Response;
+import io.smallrye.jwt.algorithm.SignatureAlgorithm;
+import io.smallrye.jwt.build.Jwt;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@QuarkusTest
+class MembershipResourceTest {
+
+    private static final String PASSWORD = "Password123!";
+    private static final String SERVICE_TOKEN_HEADER = "X-Service-Token";
+    private static final String SERVICE_ISSUER = "https://membership.internal/service-clients";
+    private static final String SERVICE_AUDIENCE = "membership-profile-lookup";
+    private static final String SERVICE_PRIVATE_KEY = "service-token/privatekey.pem";
+
+    @Test
+    void testRegistration() {
+        String email = uniqueEmail();
+        register(email)
+             .then()
+             .statusCode(201)
+             .body("status", is(true));
+
+        register(email)
+             .then()
+             .statusCode(400)
+             .body("message", is("Email already registered"));
+    }
+
+    @Test
+    void testConcurrentRegistrationOfSameEmail() throws Exception {
+        String email = uniqueEmail();
+        int callers = 4;
+
+        List<Integer> statuses = new ArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<Integer>> futures = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                futures.add(executor.submit(() -> register(email).statusCode()));
+            }
+            for (Future<Integer> future : futures) {
+                statuses.add(future.get(30, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Losers of the race hit the unique constraint and must still get 400, never 500 (503 if shed)
+        assertEquals(1, statuses.stream().filter(status -> status == 201).count(), statuses.toString());
+        assertTrue(statuses.stream().allMatch(status -> status == 201 || status == 400 || status == 503),
+                statuses.toString());
+    }
+
+    @Test
+    void testRegistrationValidation() {
+        given()
+          .contentType(ContentType.JSON)
+          .body("{\"email\":\"not-an-email\",\"firstName\":\"\",\"lastName\":\"\",\"password\":\"short\"}")
+          .when().post("/api/v1/registration")
+          .then()
+             .statusCode(400);
+    }
+
+    @Test
+    void testLogin() {
+        String email = uniqueEmail();
+        register(email).then().statusCode(201);
+
+        login(email, PASSWORD)
+             .then()
+             .statusCode(200)
+             .body("data.token", notNullValue());
+
+        login(email, "WrongPassword123!")
+             .then()
+             .statusCode(401);
+
+        login(uniqueEmail(), PASSWORD)
+             .then()
+             .statusCode(401);
+    }
+
+    @Test
+    void testGetProfile() {
+        String email = uniqueEmail();
+        String token = registerAndLogin(email);
+
+        given()
+          .auth().oauth2(token)
+          .when().get("/api/v1/profile")
+          .then()
+             .statusCode(200)
+             .body("data.email", is(email))
+             .body("data.firstName", is("Native"))
+             .body("data.lastName", is("Test"));
+
+        given()
+          .when().get("/api/v1/profile")
+          .then()
+             .statusCode(401);
+    }
+
+    @Test
+    void testUpdateProfile() {
+        String email = uniqueEmail();
+        String token = registerAndLogin(email);
+
+        given()
+          .auth().oauth2(token)
+          .contentType(ContentType.JSON)
+          .body("{\"firstName\":\"Updated\",\"lastName\":\"Name\"}")
+          .when().put("/api/v1/profile/update")
+          .then()
+             .statusCode(200)
+             .body("data.firstName", is("Updated"))
+             .body("data.lastName", is("Name"));
+
+        given()
+          .auth().oauth2(token)
+          .when().get("/api/v1/profile")
+          .then()
+             .statusCode(200)
+             .body("data.firstName", is("Updated"));
+    }
+
+    @Test
+    void testLookupProfiles() {
+        String email = uniqueEmail();
+        registerAndLogin(email);
+
+        given()
+          .header(SERVICE_TOKEN_HEADER, serviceToken(SERVICE_AUDIENCE))
+          .contentType(ContentType.JSON)
+          .body("{\"emails\":[\"" + email + "\",\"" + uniqueEmail() + "\"]}")
+          .when().post("/api/v1/profiles/lookup")
+          .then()
+             .statusCode(200)
+             .body("data.size()", is(1))
+             .body("data.'" + email + "'.firstName", is("Native"));
+
+        given()
+          .header(SERVICE_TOKEN_HEADER, serviceToken(SERVICE_AUDIENCE))
+          .contentType(ContentType.JSON)
+          .body("{}")
+          .when().post("/api/v1/profiles/lookup")
+          .then()
+             .statusCode(400);
+    }
+
+    @Test
+    void testLookupProfilesRejectsOtherTokens() {
+        String email = uniqueEmail();
+        String userToken = registerAndLogin(email);
+        String body = "{\"emails\":[\"" + email + "\"]}";
+
+        // No service token at all, even with a valid user token
+        given()
+          .auth().oauth2(userToken)
+          .contentType(ContentType.JSON)
+          .body(body)
+          .when().post("/api/v1/profiles/lookup")
+          .then()
+             .statusCode(401);
+
+        // Authentication comes before validation, so invalid bodies don't reveal validation messages
+        given()
+          .contentType(ContentType.JSON)
+          .body("{}")
+          .when().post("/api/v1/profiles/lookup")
+          .then()
+             .statusCode(401)
+             .body("message", is("Invalid or missing service token"));
+
+        // A user token is not a service token
+        given()
+          .header(SERVICE_TOKEN_HEADER, userToken)
+          .contentType(ContentType.JSON)
+          .body(body)
+          .when().post("/api/v1/profiles/lookup")
+          .then()
+             .statusCode(401);
+
+        // Anyone holding the user token secret can sign this, so it must not be accepted
+        String forged = Jwt.issuer(SERVICE_ISSUER)
+                .audience(SERVICE_AUDIENCE)
+                .upn("membership-test")
+                .groups("Service")
+                .expiresIn(300)
+                .sign();
+        given()
+          .header(SERVICE_TOKEN_HEADER, forged)
+          .contentType(ContentType.JSON)
+          .body(body)
+          .when().post("/api/v1/profiles/lookup")
+          .then()
+             .statusCode(401);
+
+        given()
+          .header(SERVICE_TOKEN_HEADER, serviceToken("some-other-service"))
+          .contentType(ContentType.JSON)
+          .body(body)
+          .when().post("/api/v1/profiles/lookup")
+          .then()
+             .statusCode(401);
+    }
+
+    private static Response register(String email) {
+        return given()
+          .contentType(ContentType.JSON)
+          .body("{\"email\":\"" + email + "\",\"firstName\":\"Native\",\"lastName\":\"Test\",\"password\":\"" + PASSWORD + "\"}")
+          .when().post("/api/v1/registration");
+    }
+
+    private static Response login(String email, String password) {
+        return given()
+          .contentType(ContentType.JSON)
+          .body("{\"email\":\"" + email + "\",\"password\":\"" + password + "\"}")
+          .when().post("/api/v1/login");
+    }
+
+    private static String registerAndLogin(String email) {
+        register(email).then().statusCode(201);
+        return login(email, PASSWORD).then().statusCode(200).extract().path("data.token");
+    }
+
+    private static String serviceToken(String audience) {
+        return Jwt.issuer(SERVICE_ISSUER)
+                .audience(audience)
+                .upn("membership-test")
+                .expiresIn(300)
+                .jws()
+                .algorithm(SignatureAlgorithm.RS256)
+                .sign(SERVICE_PRIVATE_KEY);
+    }
+
+    private static String uniqueEmail() {
+        return "test-" + UUID.randomUUID() + "@example.com";
+    }
+}
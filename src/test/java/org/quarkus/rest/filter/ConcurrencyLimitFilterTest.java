@@ -0,0 +1,146 @@
+package org.quarkus.rest.filter;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import io.restassured.http.ContentType;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@QuarkusTest
+@TestProfile(ConcurrencyLimitFilterTest.SingleWriteSlot.class)
+class ConcurrencyLimitFilterTest {
+
+    public static class SingleWriteSlot implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of(
+                    "membership.concurrency.write.min-limit", "1",
+                    "membership.concurrency.write.max-limit", "1");
+        }
+    }
+
+    @Inject
+    ConcurrencyLimitFilter filter;
+
+    @Inject
+    MeterRegistry registry;
+
+    @Test
+    void testExcessRequestsAreShed() {
+        AdaptiveConcurrencyLimiter write = filter.limiter(EndpointClass.WRITE);
+        assertEquals(1, write.getLimit());
+
+        // Another request holds the only write slot
+        assertTrue(write.tryAcquire());
+        try {
+            given()
+              .when().get("/test/concurrency/status/200")
+              .then()
+                 .statusCode(503)
+                 .header("Retry-After", "1")
+                 .body("status", is(false));
+        } finally {
+            write.release(0, false);
+        }
+
+        given()
+          .when().get("/test/concurrency/status/200")
+          .then()
+             .statusCode(200);
+        assertEquals(0, inFlight(EndpointClass.WRITE));
+    }
+
+    @Test
+    void testSlotIsReleasedAfterErrorResponses() {
+        for (String path : List.of("/test/concurrency/status/404", "/test/concurrency/status/500",
+                "/test/concurrency/failure")) {
+            given()
+              .when().get(path)
+              .then()
+                 .statusCode(path.endsWith("404") ? 404 : 500);
+            assertEquals(0, inFlight(EndpointClass.WRITE), path);
+        }
+
+        // Bean validation fails before the method runs, after the slot was taken
+        String token = registerAndLogin();
+        given()
+          .auth().oauth2(token)
+          .contentType(ContentType.JSON)
+          .body("{\"firstName\":\"\",\"lastName\":\"\"}")
+          .when().put("/api/v1/profile/update")
+          .then()
+             .statusCode(400);
+        assertEquals(0, inFlight(EndpointClass.WRITE));
+
+        // With the single slot still free, the next request is admitted
+        given()
+          .auth().oauth2(token)
+          .contentType(ContentType.JSON)
+          .body("{\"firstName\":\"Updated\",\"lastName\":\"User\"}")
+          .when().put("/api/v1/profile/update")
+          .then()
+             .statusCode(200);
+        assertEquals(0, inFlight(EndpointClass.WRITE));
+    }
+
+    @Test
+    void testEndpointsWithoutBudgetAreNeverShed() {
+        List<AdaptiveConcurrencyLimiter> held = new ArrayList<>();
+        try {
+            for (EndpointClass endpointClass : EndpointClass.values()) {
+                AdaptiveConcurrencyLimiter limiter = filter.limiter(endpointClass);
+                while (limiter.tryAcquire()) {
+                    held.add(limiter);
+                }
+            }
+
+            given()
+              .when().get("/test/concurrency/status/200")
+              .then()
+                 .statusCode(503);
+            given()
+              .when().get("/test/concurrency/unbudgeted")
+              .then()
+                 .statusCode(200);
+        } finally {
+            held.forEach(limiter -> limiter.release(0, false));
+        }
+    }
+
+    private double inFlight(EndpointClass endpointClass) {
+        return registry.get("http.concurrency.inflight")
+                .tag("endpoint", endpointClass.name().toLowerCase())
+                .gauge()
+                .value();
+    }
+
+    private static String registerAndLogin() {
+        String email = "limit-" + UUID.randomUUID() + "@example.com";
+        String credentials = "\"email\":\"" + email + "\",\"password\":\"Password123!\"";
+        given()
+          .contentType(ContentType.JSON)
+          .body("{" + credentials + ",\"firstName\":\"Limit\",\"lastName\":\"Test\"}")
+          .when().post("/api/v1/registration")
+          .then()
+             .statusCode(201);
+        return given()
+          .contentType(ContentType.JSON)
+          .body("{" + credentials + "}")
+          .when().post("/api/v1/login")
+          .then()
+             .statusCode(200)
+             .extract().path("data.token");
+    }
+}
@@ -0,0 +1,33 @@
+package org.quarkus.rest.filter;
+
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.PathParam;
+import jakarta.ws.rs.core.Response;
+
+/**
+ * Endpoints for ConcurrencyLimitFilterTest, with and without a concurrency budget.
+ */
+@Path("/test/concurrency")
+public class ConcurrencyTestResource {
+
+    @GET
+    @Path("/unbudgeted")
+    public String unbudgeted() {
+        return "ok";
+    }
+
+    @GET
+    @Path("/status/{status}")
+    @ConcurrencyBudget(EndpointClass.WRITE)
+    public Response status(@PathParam("status") int status) {
+        return Response.status(status).build();
+    }
+
+    @GET
+    @Path("/failure")
+    @ConcurrencyBudget(EndpointClass.WRITE)
+    public String failure() {
+        throw new IllegalStateException("Unhandled failure");
+    }
+}
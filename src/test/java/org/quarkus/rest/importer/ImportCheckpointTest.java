@@ -0,0 +1,64 @@
+package org.quarkus.rest.importer;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ImportCheckpointTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void testSaveAndLoad() throws IOException {
+        Path file = Files.writeString(dir.resolve("users.ndjson"), "{\"a\":1}\n");
+        ImportCheckpoint checkpoint = ImportCheckpoint.load(file);
+        checkpoint.offset = 8;
+        checkpoint.lineNumber = 1;
+        checkpoint.imported = 1;
+        checkpoint.recordFile(file);
+        checkpoint.save();
+
+        ImportCheckpoint loaded = ImportCheckpoint.load(file);
+        assertTrue(loaded.isResumed());
+        assertEquals(8, loaded.offset);
+        assertEquals(1, loaded.lineNumber);
+        assertEquals(1, loaded.imported);
+        assertTrue(loaded.matches(file));
+    }
+
+    @Test
+    void testChangedFileDoesNotMatch() throws IOException {
+        Path file = Files.writeString(dir.resolve("users.ndjson"), "{\"a\":1}\n");
+        ImportCheckpoint checkpoint = ImportCheckpoint.load(file);
+        checkpoint.offset = 8;
+        checkpoint.recordFile(file);
+        checkpoint.save();
+
+        // Same size, newer modification time
+        Files.writeString(file, "{\"b\":2}\n");
+        Files.setLastModifiedTime(file, FileTime.fromMillis(checkpoint.lastModified + 60_000));
+        assertFalse(ImportCheckpoint.load(file).matches(file));
+
+        // Original modification time, different size
+        Files.writeString(file, "{\"a\":1}\n{\"b\":2}\n");
+        Files.setLastModifiedTime(file, FileTime.fromMillis(checkpoint.lastModified));
+        assertFalse(ImportCheckpoint.load(file).matches(file));
+    }
+
+    @Test
+    void testCheckpointWithoutFileAttributesDoesNotMatch() throws IOException {
+        Path file = Files.writeString(dir.resolve("users.ndjson"), "{\"a\":1}\n");
+        Files.writeString(dir.resolve("users.ndjson.checkpoint"), "offset=8\nlineNumber=1\n");
+
+        assertFalse(ImportCheckpoint.load(file).matches(file));
+    }
+}
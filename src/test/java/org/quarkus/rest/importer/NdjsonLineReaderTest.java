@@ -0,0 +1,120 @@
+package org.quarkus.rest.importer;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NdjsonLineReaderTest {
+
+    // Small enough that most lines cross a window boundary
+    private static final long WINDOW = 16;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void testLinesAcrossWindows() throws IOException {
+        List<String> lines = new ArrayList<>();
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 50; i++) {
+            String line = "{\"n\":" + i + "}";
+            lines.add(line);
+            content.append(line).append('\n');
+        }
+        Path file = write(content.toString());
+
+        try (NdjsonLineReader reader = new NdjsonLineReader(file, 0, 0, WINDOW)) {
+            assertEquals(lines, readAll(reader));
+            assertEquals(50, reader.lineNumber());
+            assertEquals(Files.size(file), reader.position());
+        }
+    }
+
+    @Test
+    void testCrlfLineEndings() throws IOException {
+        Path file = write("{\"a\":1}\r\n{\"b\":2}\r\n");
+
+        try (NdjsonLineReader reader = new NdjsonLineReader(file, 0, 0, WINDOW)) {
+            assertEquals(List.of("{\"a\":1}", "{\"b\":2}"), readAll(reader));
+        }
+    }
+
+    @Test
+    void testBlankLinesAreSkippedButCounted() throws IOException {
+        Path file = write("{\"a\":1}\n\n\r\n{\"b\":2}\n");
+
+        try (NdjsonLineReader reader = new NdjsonLineReader(file, 0, 0, WINDOW)) {
+            assertEquals("{\"a\":1}", next(reader));
+            assertEquals(1, reader.lineNumber());
+            assertEquals("{\"b\":2}", next(reader));
+            assertEquals(4, reader.lineNumber());
+            assertNull(reader.nextLine());
+        }
+    }
+
+    @Test
+    void testLastLineWithoutNewline() throws IOException {
+        Path file = write("{\"a\":1}\n{\"last\":true}");
+
+        try (NdjsonLineReader reader = new NdjsonLineReader(file, 0, 0, WINDOW)) {
+            assertEquals(List.of("{\"a\":1}", "{\"last\":true}"), readAll(reader));
+            assertEquals(Files.size(file), reader.position());
+            assertEquals(2, reader.lineNumber());
+        }
+    }
+
+    @Test
+    void testLineLongerThanWindow() throws IOException {
+        Path file = write("{\"a\":1}\n{\"name\":\"much too long\"}\n{\"b\":2}\n");
+
+        try (NdjsonLineReader reader = new NdjsonLineReader(file, 0, 0, WINDOW)) {
+            assertEquals("{\"a\":1}", next(reader));
+            IOException e = assertThrows(IOException.class, reader::nextLine);
+            assertTrue(e.getMessage().startsWith("Line 2 "), e.getMessage());
+        }
+    }
+
+    @Test
+    void testResumeFromOffset() throws IOException {
+        Path file = write("{\"a\":1}\n{\"b\":2}\n{\"c\":3}\n");
+        long offset;
+        try (NdjsonLineReader reader = new NdjsonLineReader(file, 0, 0, WINDOW)) {
+            next(reader);
+            offset = reader.position();
+        }
+
+        try (NdjsonLineReader reader = new NdjsonLineReader(file, offset, 1, WINDOW)) {
+            assertEquals("{\"b\":2}", next(reader));
+            assertEquals(2, reader.lineNumber());
+        }
+    }
+
+    private Path write(String content) throws IOException {
+        return Files.writeString(dir.resolve("users.ndjson"), content, StandardCharsets.UTF_8);
+    }
+
+    private static String next(NdjsonLineReader reader) throws IOException {
+        byte[] line = reader.nextLine();
+        return line != null ? new String(line, StandardCharsets.UTF_8) : null;
+    }
+
+    private static List<String> readAll(NdjsonLineReader reader) throws IOException {
+        List<String> lines = new ArrayList<>();
+        String line;
+        while ((line = next(reader)) != null) {
+            lines.add(line);
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,123 @@
+package org.quarkus.rest.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+class BloomFilterTest {
+
+    private static final int ENTRIES = 100_000;
+    private static final double TARGET_RATE = 0.01;
+
+    @Test
+    void testNoFalseNegatives() {
+        BloomFilter filter = BloomFilter.create(ENTRIES, TARGET_RATE);
+        for (int i = 0; i < ENTRIES; i++) {
+            filter.add(email(i));
+        }
+
+        for (int i = 0; i < ENTRIES; i++) {
+            if (!filter.mightContain(email(i))) {
+                fail("Added email reported as missing: " + email(i));
+            }
+        }
+        assertEntries(ENTRIES, filter);
+    }
+
+    @Test
+    void testDuplicatesAreNotCounted() {
+        BloomFilter filter = BloomFilter.create(ENTRIES, TARGET_RATE);
+        filter.add(email(0));
+        filter.add(email(1));
+        double rate = filter.expectedFalsePositiveRate();
+
+        filter.add(email(0));
+        filter.add(email(1));
+        assertEquals(2, filter.entries());
+        assertEquals(rate, filter.expectedFalsePositiveRate());
+    }
+
+    @Test
+    void testFalsePositiveRateNearTarget() {
+        BloomFilter filter = BloomFilter.create(ENTRIES, TARGET_RATE);
+        for (int i = 0; i < ENTRIES; i++) {
+            filter.add(email(i));
+        }
+
+        int falsePositives = 0;
+        for (int i = ENTRIES; i < 2 * ENTRIES; i++) {
+            if (filter.mightContain(email(i))) {
+                falsePositives++;
+            }
+        }
+
+        double measured = (double) falsePositives / ENTRIES;
+        assertTrue(measured > TARGET_RATE / 2 && measured < TARGET_RATE * 1.5, "measured rate was " + measured);
+        assertEquals(TARGET_RATE, filter.expectedFalsePositiveRate(), TARGET_RATE * 0.2);
+    }
+
+    @Test
+    void testConcurrentAdd() throws Exception {
+        int threads = 8;
+        int perThread = ENTRIES / threads;
+        BloomFilter filter = BloomFilter.create(ENTRIES, TARGET_RATE);
+        CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int first = t * perThread;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = first; i < first + perThread; i++) {
+                        filter.add(email(i));
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Bits set by concurrent adds to the same word must not overwrite each other
+        for (int i = 0; i < threads * perThread; i++) {
+            if (!filter.mightContain(email(i))) {
+                fail("Concurrently added email reported as missing: " + email(i));
+            }
+        }
+        assertEntries(threads * perThread, filter);
+    }
+
+    @Test
+    void testInvalidFalsePositiveRate() {
+        assertThrows(IllegalArgumentException.class, () -> BloomFilter.create(ENTRIES, 0));
+        assertThrows(IllegalArgumentException.class, () -> BloomFilter.create(ENTRIES, 1));
+    }
+
+    // A distinct value whose bits were all set already is indistinguishable from a duplicate,
+    // which happens about as often as a false positive
+    private static void assertEntries(int added, BloomFilter filter) {
+        long entries = filter.entries();
+        assertTrue(entries <= added && entries > added * (1 - TARGET_RATE), "entries were " + entries);
+    }
+
+    private static String email(int i) {
+        return "user-" + i + "@example.com";
+    }
+}
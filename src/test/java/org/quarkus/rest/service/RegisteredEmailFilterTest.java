@@ -0,0 +1,185 @@
+package org.quarkus.rest.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+class RegisteredEmailFilterTest {
+
+    private static final String REGISTERED = "joni@gmail.com";
+
+    private SimpleMeterRegistry registry;
+    private RegisteredEmailFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        filter = new RegisteredEmailFilter();
+        filter.expectedEmails = 10_000;
+        filter.falsePositiveRate = 0.01;
+        filter.registry = registry;
+        filter.init();
+    }
+
+    @Test
+    void testMissesAreOnlyTrustedWhenSynced() {
+        subscribe();
+        install(REGISTERED);
+
+        // Built, but the listener has not caught up with notifications yet
+        assertEquals(0, misses(100));
+
+        filter.synced = true;
+        assertTrue(filter.mightContain(REGISTERED));
+        assertTrue(misses(100) > 90);
+
+        // The subscription is lost, so notifications may be missed from now on
+        filter.synced = false;
+        assertEquals(0, misses(100));
+    }
+
+    @Test
+    void testEmailsAddedDuringRebuildReachTheNewFilter() {
+        subscribe();
+        install(REGISTERED);
+        filter.synced = true;
+
+        BloomFilter building = filter.startRebuild(1);
+        building.add(REGISTERED);
+        // Registered after the rebuild read the table, so only its notification carries it
+        filter.addToFilters("new@example.com");
+
+        assertTrue(filter.finishRebuild(building, filter.listenEpoch));
+        assertTrue(filter.mightContain(REGISTERED));
+        assertTrue(filter.mightContain("new@example.com"));
+    }
+
+    @Test
+    void testFilterInstalledDuringAddReceivesTheEmail() {
+        subscribe();
+        install(REGISTERED);
+        filter.synced = true;
+
+        BloomFilter building = filter.startRebuild(1);
+        building.add(REGISTERED);
+        // The notification is applied at the same time the rebuild installs its filter
+        filter.afterPendingRead = () -> assertTrue(filter.finishRebuild(building, filter.listenEpoch));
+        filter.addToFilters("new@example.com");
+
+        assertTrue(filter.mightContain(REGISTERED));
+        assertTrue(filter.mightContain("new@example.com"));
+        assertEquals(2, registry.get("email.filter.entries").gauge().value());
+    }
+
+    @Test
+    void testConcurrentNotificationsDuringHandoff() throws Exception {
+        int emails = 5000;
+        subscribe();
+        install(REGISTERED);
+        filter.synced = true;
+
+        BloomFilter building = filter.startRebuild(emails);
+        CountDownLatch started = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> notifications = executor.submit(() -> {
+                for (int i = 0; i < emails; i++) {
+                    filter.addToFilters(email(i));
+                    if (i == emails / 2) {
+                        started.countDown();
+                    }
+                }
+            });
+
+            // Swap while notifications are still arriving, some land before and some after it
+            started.await(10, TimeUnit.SECONDS);
+            assertTrue(filter.finishRebuild(building, filter.listenEpoch));
+            notifications.get(10, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        for (int i = 0; i < emails; i++) {
+            if (!filter.mightContain(email(i))) {
+                fail("Email notified during the rebuild reported as missing: " + email(i));
+            }
+        }
+    }
+
+    @Test
+    void testRebuildIsDiscardedWhenSubscriptionChanged() {
+        subscribe();
+        install(REGISTERED);
+        long epoch = filter.listenEpoch;
+
+        BloomFilter building = filter.startRebuild(2);
+        building.add(REGISTERED);
+        building.add("other@example.com");
+
+        // The listener reconnected while the table was read; notifications in between may be lost
+        subscribe();
+        assertFalse(filter.finishRebuild(building, epoch));
+        assertEquals(1, registry.get("email.filter.entries").gauge().value());
+
+        // Lost the subscription altogether
+        building = filter.startRebuild(2);
+        filter.listening = false;
+        assertFalse(filter.finishRebuild(building, filter.listenEpoch));
+        assertEquals(1, registry.get("email.filter.entries").gauge().value());
+    }
+
+    @Test
+    void testFalsePositivesAreCountedOnlyWhenSynced() {
+        filter.recordFalsePositive();
+        assertEquals(0, registry.counter("email.filter.false.positives").count());
+
+        // Built, but every email passes until the listener has caught up
+        subscribe();
+        install(REGISTERED);
+        filter.recordFalsePositive();
+        assertEquals(0, registry.counter("email.filter.false.positives").count());
+
+        filter.synced = true;
+        filter.recordFalsePositive();
+        assertEquals(1, registry.counter("email.filter.false.positives").count());
+    }
+
+    // What the listener does after LISTEN succeeds
+    private void subscribe() {
+        filter.listenEpoch++;
+        filter.listening = true;
+    }
+
+    private void install(String... emails) {
+        BloomFilter building = filter.startRebuild(emails.length);
+        for (String email : emails) {
+            building.add(email);
+        }
+        assertTrue(filter.finishRebuild(building, filter.listenEpoch));
+    }
+
+    private int misses(int probes) {
+        int misses = 0;
+        for (int i = 0; i < probes; i++) {
+            if (!filter.mightContain("unknown-" + i + "@example.com")) {
+                misses++;
+            }
+        }
+        return misses;
+    }
+
+    private static String email(int i) {
+        return "user-" + i + "@example.com";
+    }
+}
@@ -0,0 +1,170 @@
+package org.quarkus.rest.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.quarkus.rest.entity.User;
+import org.quarkus.rest.repository.UserRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+class UserLookupServiceTest {
+
+    private static final int CALLERS = 8;
+    private static final String EMAIL = "joni@gmail.com";
+
+    private final AtomicInteger queries = new AtomicInteger();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private volatile Throwable failure;
+
+    private SimpleMeterRegistry registry;
+    private UserLookupService service;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        service = new UserLookupService();
+        service.registry = registry;
+        // Not built yet, so every email passes the filter
+        service.registeredEmailFilter = new RegisteredEmailFilter();
+        service.userRepository = new UserRepository() {
+            @Override
+            public Optional<User> findByEmail(String email) {
+                queries.incrementAndGet();
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                if (failure instanceof RuntimeException e) {
+                    throw e;
+                }
+                if (failure instanceof Error e) {
+                    throw e;
+                }
+                return Optional.of(new User(email, "User", "joni", "hash"));
+            }
+        };
+        service.init();
+    }
+
+    @Test
+    void testConcurrentCallersShareOneQuery() throws Exception {
+        List<Optional<User>> results = callConcurrently();
+
+        assertEquals(1, queries.get());
+        User user = results.get(0).orElseThrow();
+        for (Optional<User> result : results) {
+            assertSame(user, result.orElseThrow());
+        }
+        assertEquals((CALLERS - 1) / (double) CALLERS, service.coalescingRatio(), 1e-9);
+    }
+
+    @Test
+    void testFailureReachesEveryCaller() throws Exception {
+        failure = new IllegalStateException("database down");
+
+        ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+        try {
+            List<Future<Optional<User>>> futures = submitCallers(executor);
+            awaitFollowers();
+            release.countDown();
+
+            for (Future<Optional<User>> future : futures) {
+                Exception e = assertThrows(Exception.class, future::get);
+                assertSame(failure, e.getCause());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, queries.get());
+    }
+
+    @Test
+    void testErrorReachesEveryCaller() throws Exception {
+        failure = new StackOverflowError("repository blew the stack");
+
+        ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+        try {
+            List<Future<Optional<User>>> futures = submitCallers(executor);
+            awaitFollowers();
+            release.countDown();
+
+            // Followers must not hang in join() when the leader fails with an Error
+            for (Future<Optional<User>> future : futures) {
+                Exception e = assertThrows(ExecutionException.class, () -> future.get(10, TimeUnit.SECONDS));
+                assertSame(failure, e.getCause());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, queries.get());
+    }
+
+    @Test
+    void testInFlightEntryIsRemovedAfterwards() throws Exception {
+        callConcurrently();
+
+        // A later lookup must not reuse the completed call
+        service.findByEmail(EMAIL);
+        assertEquals(2, queries.get());
+        assertEquals((CALLERS - 1) / (double) (CALLERS + 1), service.coalescingRatio(), 1e-9);
+    }
+
+    @Test
+    void testCoalescingRatioWithoutLookups() {
+        assertEquals(0, service.coalescingRatio());
+    }
+
+    private List<Optional<User>> callConcurrently() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+        try {
+            List<Future<Optional<User>>> futures = submitCallers(executor);
+            awaitFollowers();
+            release.countDown();
+
+            List<Optional<User>> results = new ArrayList<>();
+            for (Future<Optional<User>> future : futures) {
+                results.add(future.get(10, TimeUnit.SECONDS));
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private List<Future<Optional<User>>> submitCallers(ExecutorService executor) {
+        List<Future<Optional<User>>> futures = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            futures.add(executor.submit(() -> service.findByEmail(EMAIL)));
+        }
+        return futures;
+    }
+
+    // The leader is blocked in the repository, so wait until everyone else has joined its call
+    private void awaitFollowers() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (registry.counter("user.lookup.coalesced").count() < CALLERS - 1) {
+            if (System.nanoTime() > deadline) {
+                fail("Callers did not join the in-flight lookup");
+            }
+            Thread.sleep(5);
+        }
+        assertTrue(queries.get() <= 1);
+    }
+}